@@ -8,6 +8,7 @@ import common.*;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.rmi.server.ServerNotActiveException;
 import java.rmi.server.UnicastRemoteObject;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -33,6 +34,9 @@ public class CentralServer extends UnicastRemoteObject implements ICentralServer
   private static final DateTimeFormatter fmt =
       DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
 
+  // Rollups per sensor stream and across all of them; updated lock-free outside the monitor
+  private final RollupView rollups;
+
   protected CentralServer() throws RemoteException {
     super();
     // Initialise Array receivedMessages
@@ -40,10 +44,14 @@ public class CentralServer extends UnicastRemoteObject implements ICentralServer
     totalExpected = 0;
     firstReceived = null;
     lastReceived = null;
+    rollups = new RollupView();
   }
 
   public static void main(String[] args) throws RemoteException {
-    CentralServer cs = new CentralServer();
+    // Parse optional arguments: registry port, binding name and number of shards to host
+    int registryPort = args.length > 0 ? Integer.parseInt(args[0]) : Registry.REGISTRY_PORT;
+    String name = args.length > 1 ? args[1] : "CentralServer";
+    int shards = args.length > 2 ? Integer.parseInt(args[2]) : 1;
 
     // Configure Security Manager (If JAVA version earlier than version 17)
     // Not required
@@ -51,19 +59,47 @@ public class CentralServer extends UnicastRemoteObject implements ICentralServer
     // Create (or Locate) Registry
     Registry registry;
     try {
-      registry = LocateRegistry.createRegistry(1099);
+      registry = LocateRegistry.createRegistry(registryPort);
     } catch (RemoteException e) {
-      registry = LocateRegistry.getRegistry(1099);
+      registry = LocateRegistry.getRegistry(registryPort);
+    }
+
+    // Bind to Registry. A single server keeps the plain name; shards are bound as name-0..name-N-1
+    if (shards <= 1) {
+      bind(registry, name, new CentralServer());
+      System.out.println("Central Server ready as " + name + " on port " + registryPort);
+      return;
     }
 
-    // Bind to Registry
-    registry.rebind("CentralServer", cs);
+    for (int i = 0; i < shards; i++) {
+      bind(registry, name + "-" + i, new CentralServer());
+      System.out.println(
+          "Central Server shard ready as " + name + "-" + i + " on port " + registryPort);
+    }
+  }
 
-    System.out.println("Central Server ready");
+  /* Bind the server under 'name' and its rollups under 'name-rollups' */
+  private static void bind(Registry registry, String name, CentralServer server)
+      throws RemoteException {
+    registry.rebind(name, server);
+    registry.rebind(name + "-rollups", server.getRollupView());
+  }
+
+  public IRollupView getRollupView() {
+    return rollups;
   }
 
   @Override
   public void receiveMsg(MessageInfo msg) {
+    // Update rollups first: no lock is taken, so dashboards and other Field Units never wait here
+    long nowMillis = System.currentTimeMillis();
+    rollups.add(streamOf(msg), msg.getMessage(), nowMillis);
+
+    recordMsg(msg);
+  }
+
+  // Synchronized: RMI dispatches concurrent calls from several Field Units on separate threads
+  private synchronized void recordMsg(MessageInfo msg) {
     // If this is the first message, reset counter and initialise data structure.
     if (msg.getMessageNum() == 1) {
       receivedMessages = new ArrayList<>();
@@ -94,7 +130,7 @@ public class CentralServer extends UnicastRemoteObject implements ICentralServer
     }
   }
 
-  public void printStats() {
+  public synchronized void printStats() {
     // Find out how many messages were missing */
     int received = receivedMessages.size();
     int missing = totalExpected - received;
@@ -129,5 +165,26 @@ public class CentralServer extends UnicastRemoteObject implements ICentralServer
 
     firstReceived = null;
     lastReceived = null;
+
+    long nowMillis = System.currentTimeMillis();
+    System.out.println(
+        "[Central Server] Rollup (all streams, this minute): "
+            + rollups.getAll().getPerMinute().current(nowMillis));
+
+    // Sweep here, once per transmission, so the rollup map does not keep every stream ever seen
+    int evicted = rollups.evictIdle(nowMillis);
+    if (evicted > 0) {
+      System.out.println("[Central Server] Evicted " + evicted + " idle stream rollup(s)");
+    }
+  }
+
+  /* Stream id set by the Field Unit; senders that set none are grouped by their host */
+  private static String streamOf(MessageInfo msg) {
+    if (msg.getStreamId() != null) return msg.getStreamId();
+    try {
+      return "host:" + getClientHost();
+    } catch (ServerNotActiveException e) {
+      return "host:local";
+    }
   }
 }
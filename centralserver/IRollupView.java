@@ -0,0 +1,31 @@
+package centralserver;
+
+/*
+ * Updated on Oct 2026
+ */
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/* Read-only access to the Central Server rollups, e.g. for dashboards polling over RMI.
+ * Bound next to each Central Server as "<name>-rollups", e.g. "CentralServer-rollups".
+ * 'stream' is a sensor stream id as returned by streams(), or null for all streams combined.
+ * Messages without a stream id (e.g. from an older Field Unit) are grouped per sending host
+ * as "host:<address>".
+ * The per-stream getters return null for an unknown stream. */
+public interface IRollupView extends Remote {
+  /* Streams that have sent a value within the last hour; idle streams are evicted */
+  public List<String> streams() throws RemoteException;
+
+  /* Rollup of the last complete second */
+  public RollupWindow.Snapshot latestSecond(String stream) throws RemoteException;
+
+  /* Rollup of the last complete minute */
+  public RollupWindow.Snapshot latestMinute(String stream) throws RemoteException;
+
+  /* Every per-second bucket still held (the last 60 s), oldest first; the last one is filling */
+  public List<RollupWindow.Snapshot> secondHistory(String stream) throws RemoteException;
+
+  /* Every per-minute bucket still held (the last 60 min), oldest first; the last one is filling */
+  public List<RollupWindow.Snapshot> minuteHistory(String stream) throws RemoteException;
+}
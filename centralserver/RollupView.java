@@ -0,0 +1,92 @@
+package centralserver;
+
+/*
+ * Updated on Oct 2026
+ */
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rollups of one Central Server, per sensor stream and across all of them. Exported as its own
+ * remote object so the Central Server stub keeps implementing ICentralServer only, and Field
+ * Units built before IRollupView existed can still look it up.
+ */
+public class RollupView extends UnicastRemoteObject implements IRollupView {
+
+  private final ConcurrentMap<String, StreamRollup> streamRollups;
+  private final StreamRollup allRollup;
+
+  protected RollupView() throws RemoteException {
+    super();
+    streamRollups = new ConcurrentHashMap<>();
+    allRollup = new StreamRollup();
+  }
+
+  /* Lock-free: called for every message before the Central Server takes its monitor */
+  void add(String stream, float value, long nowMillis) {
+    allRollup.add(value, nowMillis);
+    rollupFor(stream).add(value, nowMillis);
+  }
+
+  StreamRollup getAll() {
+    return allRollup;
+  }
+
+  /* Drop streams with no value left in their per-minute window; returns how many were dropped.
+   * A writer that fetched a rollup just before it is dropped adds its value to the dropped copy,
+   * so a stream resuming after an hour of silence can lose that one value from its rollup. */
+  int evictIdle(long nowMillis) {
+    int evicted = 0;
+    for (Map.Entry<String, StreamRollup> entry : streamRollups.entrySet()) {
+      if (entry.getValue().getPerMinute().isEmpty(nowMillis)
+          && streamRollups.remove(entry.getKey(), entry.getValue())) {
+        evicted++;
+      }
+    }
+    return evicted;
+  }
+
+  private StreamRollup rollupFor(String stream) {
+    // get() first: the common case must not go through computeIfAbsent's bin lock
+    StreamRollup rollup = streamRollups.get(stream);
+    return rollup != null ? rollup : streamRollups.computeIfAbsent(stream, k -> new StreamRollup());
+  }
+
+  @Override
+  public List<String> streams() {
+    return new ArrayList<>(streamRollups.keySet());
+  }
+
+  @Override
+  public RollupWindow.Snapshot latestSecond(String stream) {
+    StreamRollup rollup = stream == null ? allRollup : streamRollups.get(stream);
+    if (rollup == null) return null;
+    return rollup.getPerSecond().latest(System.currentTimeMillis());
+  }
+
+  @Override
+  public RollupWindow.Snapshot latestMinute(String stream) {
+    StreamRollup rollup = stream == null ? allRollup : streamRollups.get(stream);
+    if (rollup == null) return null;
+    return rollup.getPerMinute().latest(System.currentTimeMillis());
+  }
+
+  @Override
+  public List<RollupWindow.Snapshot> secondHistory(String stream) {
+    StreamRollup rollup = stream == null ? allRollup : streamRollups.get(stream);
+    if (rollup == null) return null;
+    return rollup.getPerSecond().history(System.currentTimeMillis());
+  }
+
+  @Override
+  public List<RollupWindow.Snapshot> minuteHistory(String stream) {
+    StreamRollup rollup = stream == null ? allRollup : streamRollups.get(stream);
+    if (rollup == null) return null;
+    return rollup.getPerMinute().history(System.currentTimeMillis());
+  }
+}
@@ -0,0 +1,170 @@
+package centralserver;
+
+/*
+ * Updated on Oct 2026
+ */
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size ring of time buckets holding count/min/max/sum of the values received in each
+ * period (e.g. 60 one-second buckets). Writers only touch striped LongAdder/DoubleAdder/
+ * DoubleAccumulator cells and recycle an expired bucket with a single CAS, so add() never locks.
+ * Readers sum the cells of one bucket, so latest() is O(1) and never blocks writers.
+ *
+ * <p>The cells of a bucket are read one after another, not atomically. A bucket that is still
+ * filling (current(), or the newest entry of history()) may therefore show a count ahead of its
+ * sum, min or max by up to the number of concurrent writers. A complete bucket (latest()) only
+ * sees this if a writer was delayed across the period boundary.
+ */
+public class RollupWindow {
+
+  private final long bucketMillis;
+  private final AtomicReferenceArray<Bucket> buckets;
+
+  public RollupWindow(long bucketMillis, int size) {
+    if (bucketMillis < 1 || size < 2)
+      throw new IllegalArgumentException("RollupWindow: bucketMillis >= 1 and size >= 2 required");
+
+    this.bucketMillis = bucketMillis;
+    this.buckets = new AtomicReferenceArray<>(size);
+  }
+
+  public void add(float value, long nowMillis) {
+    long period = nowMillis / bucketMillis;
+    int slot = (int) (period % buckets.length());
+
+    while (true) {
+      Bucket b = buckets.get(slot);
+      if (b != null && b.period == period) {
+        b.add(value);
+        return;
+      }
+      // Value is older than the whole window: its bucket has already been recycled
+      if (b != null && b.period > period) return;
+
+      // Bucket is empty or expired: swap in a fresh one (retry if another writer beat us)
+      buckets.compareAndSet(slot, b, new Bucket(period));
+    }
+  }
+
+  /* Rollup of the last complete period before 'nowMillis' */
+  public Snapshot latest(long nowMillis) {
+    return snapshot(nowMillis / bucketMillis - 1);
+  }
+
+  /* Rollup of the period containing 'nowMillis', still being filled */
+  public Snapshot current(long nowMillis) {
+    return snapshot(nowMillis / bucketMillis);
+  }
+
+  /* Rollups of every period still held in the ring, oldest first */
+  public List<Snapshot> history(long nowMillis) {
+    long period = nowMillis / bucketMillis;
+    List<Snapshot> result = new ArrayList<>();
+    for (long p = period - buckets.length() + 1; p <= period; p++) {
+      result.add(snapshot(p));
+    }
+    return result;
+  }
+
+  /* True if no value was added in any period still held in the ring */
+  public boolean isEmpty(long nowMillis) {
+    long oldest = nowMillis / bucketMillis - buckets.length() + 1;
+    for (int i = 0; i < buckets.length(); i++) {
+      Bucket b = buckets.get(i);
+      if (b != null && b.period >= oldest) return false;
+    }
+    return true;
+  }
+
+  private Snapshot snapshot(long period) {
+    Bucket b = buckets.get((int) (period % buckets.length()));
+    if (b == null || b.period != period) {
+      return new Snapshot(period * bucketMillis, bucketMillis, 0, 0, Double.NaN, Double.NaN);
+    }
+    return new Snapshot(
+        period * bucketMillis, bucketMillis, b.count.sum(), b.sum.sum(), b.min.get(), b.max.get());
+  }
+
+  private static class Bucket {
+    private final long period;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAccumulator min =
+        new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+    private final DoubleAccumulator max =
+        new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+    Bucket(long period) {
+      this.period = period;
+    }
+
+    void add(float value) {
+      count.increment();
+      sum.add(value);
+      min.accumulate(value);
+      max.accumulate(value);
+    }
+  }
+
+  /**
+   * Immutable count/min/max/mean of one bucket. Serializable so it can be returned over RMI.
+   * Min, max and mean are NaN for an empty bucket. Min and max are also NaN while the first
+   * value of a bucket is being recorded (count already visible, accumulators still at
+   * +/-Infinity).
+   */
+  public static class Snapshot implements Serializable {
+    private final long startMillis;
+    private final long durationMillis;
+    private final long count;
+    private final double sum;
+    private final double min;
+    private final double max;
+
+    Snapshot(
+        long startMillis, long durationMillis, long count, double sum, double min, double max) {
+      this.startMillis = startMillis;
+      this.durationMillis = durationMillis;
+      this.count = count;
+      this.sum = sum;
+      this.min = count == 0 || Double.isInfinite(min) ? Double.NaN : min;
+      this.max = count == 0 || Double.isInfinite(max) ? Double.NaN : max;
+    }
+
+    public long getStartMillis() {
+      return startMillis;
+    }
+
+    public long getDurationMillis() {
+      return durationMillis;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public double getMin() {
+      return min;
+    }
+
+    public double getMax() {
+      return max;
+    }
+
+    public double getMean() {
+      return count == 0 ? Double.NaN : sum / count;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "count=%d min=%.3f max=%.3f mean=%.3f", count, getMin(), getMax(), getMean());
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package centralserver;
+
+/*
+ * Updated on Oct 2026
+ */
+
+/**
+ * Continuously maintained per-second and per-minute rollups of one sensor stream, or of all
+ * streams combined. The per-second ring covers the last 60 seconds and the per-minute ring the
+ * last 60 minutes.
+ */
+public class StreamRollup {
+
+  private static final int second_buckets = 60;
+  private static final int minute_buckets = 60;
+
+  private final RollupWindow perSecond;
+  private final RollupWindow perMinute;
+
+  public StreamRollup() {
+    this.perSecond = new RollupWindow(1000, second_buckets);
+    this.perMinute = new RollupWindow(60_000, minute_buckets);
+  }
+
+  public void add(float value, long nowMillis) {
+    perSecond.add(value, nowMillis);
+    perMinute.add(value, nowMillis);
+  }
+
+  public RollupWindow getPerSecond() {
+    return perSecond;
+  }
+
+  public RollupWindow getPerMinute() {
+    return perMinute;
+  }
+}
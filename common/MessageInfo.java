@@ -12,30 +12,49 @@ import java.io.Serializable;
  */
 public class MessageInfo implements Serializable {
 
+  // Pinned to the value computed for the original 3-field class, so Field Units and Central
+  // Servers from before and after the stream id was added still exchange messages over RMI
+  // (an old sender's messages arrive with streamId == null)
+  private static final long serialVersionUID = 7177178015501708478L;
+
   private int totalMessages;
   private int messageNum;
   private float message;
 
+  // Optional id of the sensor stream the message belongs to (null when the sender sets none)
+  private String streamId;
+
   public MessageInfo(int total, int msgNum, float value) {
+    this(total, msgNum, value, null);
+  }
+
+  public MessageInfo(int total, int msgNum, float value, String stream) {
     totalMessages = total;
     messageNum = msgNum;
     message = value;
+    setStreamId(stream);
   }
 
   public MessageInfo(String msg) throws Exception {
     String[] fields = msg.split(";");
 
-    if (fields.length != 3)
+    if (fields.length != 3 && fields.length != 4)
       throw new Exception("MessageInfo: Invalid string for message construction: " + msg);
 
     totalMessages = Integer.parseInt(fields[0]);
     messageNum = Integer.parseInt(fields[1]);
     message = Float.parseFloat(fields[2]);
+    streamId = fields.length == 4 ? fields[3] : null;
+
+    // Same rule as setStreamId(), but reported as a parse error like any other malformed field
+    if (streamId != null && !isValidStreamId(streamId))
+      throw new Exception("MessageInfo: Invalid stream id in message: " + msg);
   }
 
   @Override
   public String toString() {
-    return new String(totalMessages + ";" + messageNum + ";" + message + "\n");
+    String stream = streamId == null ? "" : ";" + streamId;
+    return new String(totalMessages + ";" + messageNum + ";" + message + stream + "\n");
   }
 
   public float getMessage() {
@@ -50,6 +69,10 @@ public class MessageInfo implements Serializable {
     return totalMessages;
   }
 
+  public String getStreamId() {
+    return streamId;
+  }
+
   public void setMessage(float message) {
     this.message = message;
   }
@@ -61,4 +84,15 @@ public class MessageInfo implements Serializable {
   public void setTotalMessages(int totalMessages) {
     this.totalMessages = totalMessages;
   }
+
+  public void setStreamId(String streamId) {
+    if (streamId != null && !isValidStreamId(streamId))
+      throw new IllegalArgumentException("MessageInfo: Invalid stream id: " + streamId);
+    this.streamId = streamId;
+  }
+
+  /* A stream id must survive the "total;num;value;id" string format */
+  public static boolean isValidStreamId(String streamId) {
+    return !streamId.isEmpty() && !streamId.contains(";") && streamId.trim().equals(streamId);
+  }
 }
@@ -0,0 +1,89 @@
+package field;
+
+/*
+ * Updated on Oct 2026
+ */
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring mapping stream keys to shard ids. Each shard is placed on the ring at
+ * several virtual points so keys spread evenly, and adding or removing a shard only remaps the
+ * keys that fall between its points and their predecessors (roughly 1/N of all keys).
+ */
+public class ConsistentHashRing {
+
+  private static final int DEFAULT_VIRTUAL_NODES = 128;
+
+  private final int virtualNodes;
+  private final TreeMap<Long, String> ring;
+  private final List<String> shards;
+
+  public ConsistentHashRing() {
+    this(DEFAULT_VIRTUAL_NODES);
+  }
+
+  public ConsistentHashRing(int virtualNodes) {
+    if (virtualNodes < 1)
+      throw new IllegalArgumentException("ConsistentHashRing: virtualNodes must be >= 1");
+
+    this.virtualNodes = virtualNodes;
+    this.ring = new TreeMap<>();
+    this.shards = new ArrayList<>();
+  }
+
+  public synchronized void addShard(String shard) {
+    if (shards.contains(shard)) return;
+
+    shards.add(shard);
+    for (int i = 0; i < virtualNodes; i++) {
+      ring.put(hash(shard + "#" + i), shard);
+    }
+  }
+
+  public synchronized void removeShard(String shard) {
+    if (!shards.remove(shard)) return;
+
+    for (int i = 0; i < virtualNodes; i++) {
+      ring.remove(hash(shard + "#" + i), shard);
+    }
+  }
+
+  /* Return the shard owning 'key': the first virtual point clockwise from hash(key) */
+  public synchronized String getShard(String key) {
+    if (ring.isEmpty()) return null;
+
+    Map.Entry<Long, String> owner = ring.ceilingEntry(hash(key));
+    if (owner == null) owner = ring.firstEntry();
+    return owner.getValue();
+  }
+
+  public synchronized List<String> getShards() {
+    return new ArrayList<>(shards);
+  }
+
+  public synchronized int size() {
+    return shards.size();
+  }
+
+  /* First 8 bytes of MD5: cheap, well distributed and stable across JVMs (unlike hashCode) */
+  private static long hash(String key) {
+    try {
+      MessageDigest md5 = MessageDigest.getInstance("MD5");
+      byte[] digest = md5.digest(key.getBytes(StandardCharsets.UTF_8));
+      long h = 0;
+      for (int i = 0; i < 8; i++) {
+        h = (h << 8) | (digest[i] & 0xff);
+      }
+      return h;
+    } catch (NoSuchAlgorithmException e) {
+      // MD5 is mandatory on every Java platform
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -19,7 +19,9 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /* You can add/change/delete class attributes if you wish.
  *
@@ -28,18 +30,36 @@ import java.util.List;
  */
 
 public class FieldUnit implements IFieldUnit {
-  private ICentralServer central_server;
+  private static final int default_rmi_port = Registry.REGISTRY_PORT;
+  private static final String default_rmi_name = "CentralServer";
+
+  // Central Server shards, keyed by "host:port/name", and the ring routing streams onto them
+  private final Map<String, ICentralServer> central_servers;
+  private final ConsistentHashRing ring;
+
+  // Identifies the sensor stream of the current transmission, used as the ring key. It is the
+  // sensor id carried in the messages, or the sender's IP address when the sensor sends none.
+  // Never the sender's UDP port: sensors open a new ephemeral socket for every transmission, so
+  // keying on it would move the same sensor to a random shard each time.
+  private String streamKey;
 
   /* Note: Could you discuss in one line of comment you think can be
    * an appropriate size for buffsize? (used to init DatagramPacket?)
-   * buffsize = 2048 bytes: a MessageInfo string (total;num;value\n) is at
-   * most ~40 chars, so 2048 gives generous headroom for any payload.
+   * buffsize = 2048 bytes: a MessageInfo string (total;num;value[;stream]\n) is ~40 chars
+   * plus the optional stream id, whose length is not bounded by MessageInfo. 2048 leaves room
+   * for any reasonable id; a longer datagram would be truncated here, cutting the id short.
    */
   private static final int buffsize = 2048;
   private int timeout = 50000;
 
+  // Kept open between transmissions so datagrams arriving between two receiveMeasures() calls
+  // queue in the socket buffer instead of being dropped
+  private DatagramSocket socket;
+
   private List<MessageInfo> receivedMessages;
   private float[] movingAverages;
+  // sources[i] = sensor message holding the newest value in the window of movingAverages[i]
+  private MessageInfo[] sources;
   private int totalExpected;
 
   public FieldUnit() {
@@ -47,6 +67,9 @@ public class FieldUnit implements IFieldUnit {
     this.receivedMessages = new ArrayList<>();
     this.movingAverages = null;
     this.totalExpected = 0;
+    this.central_servers = new HashMap<>();
+    this.ring = new ConsistentHashRing();
+    this.streamKey = null;
   }
 
   @Override
@@ -63,8 +86,10 @@ public class FieldUnit implements IFieldUnit {
     // Compute SMA and store values in a class attribute
     int n = this.receivedMessages.size();
     this.movingAverages = new float[n];
+    this.sources = new MessageInfo[n];
 
     for (int i = 0; i < n; i++) {
+      this.sources[i] = this.receivedMessages.get(i);
       if (i < k - 1) {
         // If index i < k-1 points, use raw values
         this.movingAverages[i] = this.receivedMessages.get(i).getMessage();
@@ -88,8 +113,8 @@ public class FieldUnit implements IFieldUnit {
     Instant firstReceived = null;
     Instant lastReceived = null;
 
-    // Create UDP socket and bind to local port 'port'
-    DatagramSocket socket = new DatagramSocket(port);
+    // Create UDP socket and bind to local port 'port' (unless already bound from a previous call)
+    openSocket(port);
     socket.setSoTimeout(this.timeout);
 
     boolean listen = true;
@@ -116,6 +141,10 @@ public class FieldUnit implements IFieldUnit {
           msgTot = msg.getTotalMessages();
           this.totalExpected = msgTot;
           this.receivedMessages = new ArrayList<>();
+          this.streamKey =
+              msg.getStreamId() != null
+                  ? msg.getStreamId()
+                  : packet.getAddress().getHostAddress();
           firstReceived = now;
         }
 
@@ -152,26 +181,54 @@ public class FieldUnit implements IFieldUnit {
       System.out.println("[Field Unit] Last received : " + fmt.format(lastReceived));
       System.out.println("[Field Unit] Duration      : " + durationMs + " ms");
     }
+  }
+
+  /* Bind the UDP port ahead of receiveMeasures(); datagrams queue until it is called */
+  public void openSocket(int port) throws SocketException {
+    if (socket == null || socket.isClosed() || socket.getLocalPort() != port) {
+      closeSocket();
+      socket = new DatagramSocket(port);
+    }
+  }
 
-    // Close socket
-    socket.close();
+  /* Release the UDP port bound by receiveMeasures() */
+  public void closeSocket() {
+    if (socket != null) {
+      socket.close();
+      socket = null;
+    }
+  }
+
+  /* Sensor message that completed moving average 'averageNum' (1-based, as sent by
+   * sendAverages()), or null if there is no such average. Averages are renumbered 1..received,
+   * so after a loss average i is not built from sensor message i. */
+  public MessageInfo getSourceMessage(int averageNum) {
+    if (sources == null || averageNum < 1 || averageNum > sources.length) return null;
+    return sources[averageNum - 1];
+  }
+
+  /* Number of messages stored for the current transmission (reset by printStats()) */
+  public int getReceivedCount() {
+    return receivedMessages.size();
   }
 
   public static void main(String[] args) throws SocketException {
     if (args.length < 2) {
-      System.out.println("Usage: ./fieldunit.sh <UDP rcv port> <RMI server HostName/IPAddress>");
+      System.out.println(
+          "Usage: ./fieldunit.sh <UDP rcv port> <RMI server HostName/IPAddress[:port][/name]> ...");
       return;
     }
 
     // Parse arguments
     int port = Integer.parseInt(args[0]);
-    String rmiAddress = args[1];
 
     // Construct Field Unit Object
     FieldUnit fieldUnit = new FieldUnit();
 
-    // Call initRMI on the Field Unit Object
-    fieldUnit.initRMI(rmiAddress);
+    // Call initRMI on the Field Unit Object once per Central Server shard
+    for (int i = 1; i < args.length; i++) {
+      fieldUnit.initRMI(args[i]);
+    }
 
     while (true) {
       // Wait for incoming transmission
@@ -179,6 +236,7 @@ public class FieldUnit implements IFieldUnit {
         fieldUnit.receiveMeasures(port, 5000);
       } catch (SocketException e) {
         System.err.println("[Field Unit] Socket exception: " + e.getMessage());
+        fieldUnit.closeSocket();
         break;
       }
 
@@ -212,18 +270,84 @@ public class FieldUnit implements IFieldUnit {
     // Initialise Security Manager (If JAVA version earlier than version 17)
     // Not required
 
+    // 'address' is a shard spec host[:port][/name]; port and name default to 1099/CentralServer.
+    // IPv6 literals must be bracketed, e.g. [::1]:1099/CentralServer
+    String host = address;
+    String name = default_rmi_name;
+    int rmiPort = default_rmi_port;
+
+    try {
+      int slash = host.indexOf('/');
+      if (slash >= 0) {
+        name = host.substring(slash + 1);
+        host = host.substring(0, slash);
+      }
+
+      String portSpec = null;
+      if (host.startsWith("[")) {
+        int close = host.indexOf(']');
+        if (close < 0) throw new IllegalArgumentException("missing ']' in " + address);
+        String rest = host.substring(close + 1);
+        if (!rest.isEmpty() && !rest.startsWith(":"))
+          throw new IllegalArgumentException("unexpected '" + rest + "' in " + address);
+        if (!rest.isEmpty()) portSpec = rest.substring(1);
+        host = host.substring(1, close);
+      } else if (host.indexOf(':') != host.lastIndexOf(':')) {
+        throw new IllegalArgumentException("IPv6 address must be written as [addr]: " + address);
+      } else if (host.indexOf(':') >= 0) {
+        portSpec = host.substring(host.indexOf(':') + 1);
+        host = host.substring(0, host.indexOf(':'));
+      }
+
+      if (portSpec != null) {
+        rmiPort = Integer.parseInt(portSpec);
+        if (rmiPort < 1 || rmiPort > 65535)
+          throw new IllegalArgumentException("port out of range in " + address);
+      }
+      if (host.isEmpty() || name.isEmpty())
+        throw new IllegalArgumentException("missing host or name in " + address);
+    } catch (IllegalArgumentException e) {
+      // Also covers NumberFormatException from a malformed port
+      System.err.println("[Field Unit] RMI init error: invalid shard spec: " + e.getMessage());
+      return;
+    }
+
+    String hostPort = (host.indexOf(':') >= 0 ? "[" + host + "]" : host) + ":" + rmiPort;
     try {
       // Bind to RMIServer
-      Registry registry = LocateRegistry.getRegistry(address);
-      central_server = (ICentralServer) registry.lookup("CentralServer");
-      System.out.println("[Field Unit] Connected to CentralServer via RMI at " + address);
+      Registry registry = LocateRegistry.getRegistry(host, rmiPort);
+      ICentralServer server = (ICentralServer) registry.lookup(name);
+      addShard(hostPort + "/" + name, server);
+      System.out.println("[Field Unit] Connected to " + name + " via RMI at " + hostPort);
     } catch (RemoteException | NotBoundException e) {
       System.err.println("[Field Unit] RMI init error: " + e.getMessage());
     }
   }
 
+  /* Add a Central Server shard to the ring; only streams hashing next to its points move to it */
+  public synchronized void addShard(String shard, ICentralServer server) {
+    central_servers.put(shard, server);
+    ring.addShard(shard);
+  }
+
+  /* Remove a Central Server shard; its streams fall through to their next shard on the ring */
+  public synchronized void removeShard(String shard) {
+    ring.removeShard(shard);
+    central_servers.remove(shard);
+  }
+
+  /* Central Server shard owning the current sensor stream, or null if none is connected */
+  private synchronized ICentralServer route() {
+    // Ring and map are read under the same lock addShard/removeShard take to change them
+    String shard = ring.getShard(streamKey == null ? "" : streamKey);
+    if (shard == null) return null;
+    System.out.println("[Field Unit] Stream " + streamKey + " routed to " + shard);
+    return central_servers.get(shard);
+  }
+
   @Override
   public void sendAverages() {
+    ICentralServer central_server = route();
     if (central_server == null) {
       System.err.println("[Field Unit] Cannot send averages: not connected to CentralServer.");
       return;
@@ -238,10 +362,13 @@ public class FieldUnit implements IFieldUnit {
     Instant firstSent = null;
     Instant lastSent = null;
     int total = movingAverages.length;
+    // streamKey comes from the network; drop it rather than let an invalid id abort the send
+    String stream = streamKey != null && MessageInfo.isValidStreamId(streamKey) ? streamKey : null;
 
     // Attempt to send messages the specified number of times
     for (int i = 0; i < total; i++) {
-      MessageInfo msg = new MessageInfo(total, i + 1, movingAverages[i]);
+      // Tag every average with its stream so the Central Server can keep per-stream rollups
+      MessageInfo msg = new MessageInfo(total, i + 1, movingAverages[i], stream);
       try {
         central_server.receiveMsg(msg);
 
@@ -0,0 +1,3 @@
+#!/bin/bash
+
+java -cp . loadtest.LoadTest $*
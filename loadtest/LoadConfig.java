@@ -0,0 +1,172 @@
+package loadtest;
+
+/*
+ * Updated on Oct 2026
+ */
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parameters of a load-test run, parsed from "--name value" command line pairs. Every option has
+ * a default so the harness can be launched with no arguments.
+ */
+public class LoadConfig {
+
+  public static final String usage =
+      "Usage: ./loadtest.sh [--sensors N] [--messages N] [--fieldunits N] [--shards N[,N...]]\n"
+          + "         [--rate msg/s] [--distribution uniform|gaussian|constant]\n"
+          + "         [--loss p] [--duplicate p] [--reorder p] [--jitter us]\n"
+          + "         [--timeout ms] [--window k] [--registry port] [--baseport port]\n"
+          + "         [--servicetime us] [--warmup N] [--repeat N] [--check]\n"
+          + "         [--seed n] [--verbose] [--ringcheck]";
+
+  int sensors = 1000;
+  int messages = 20;
+  int fieldUnits = 4;
+  List<Integer> shards = List.of(1);
+
+  // Per-sensor send rate in messages/second; 0 sends as fast as possible
+  double rate = 0;
+  SimulatedSensor.Distribution distribution = SimulatedSensor.Distribution.UNIFORM;
+
+  // Fault injection: probabilities per message, jitter as a maximum delay in microseconds
+  double loss = 0;
+  double duplicate = 0;
+  double reorder = 0;
+  int jitterMicros = 0;
+
+  // Serialized work each Central Server shard does per message while holding its lock, in
+  // microseconds. Models a per-shard downstream (disk, database); 0 (the default) adds nothing.
+  // Any speedup with this set comes from the sleeps it injects, not from CentralServer's ingest.
+  int serviceMicros = 0;
+
+  // Sensors in an unreported warm-up run per shard count (0 disables), and how often to repeat
+  // the shard sweep. Each repetition shuffles the shard counts; the summary uses the medians.
+  int warmup = 500;
+  int repeat = 3;
+  // Exit with status 1 unless throughput rises with every larger shard count
+  boolean check = false;
+  // Only check that adding a shard to the hash ring remaps about 1/N of the streams, then exit
+  boolean ringCheck = false;
+
+  // Field Unit receive timeout in ms. A gap between two datagrams of one sensor longer than this
+  // ends its transmission early, so with --rate the default grows to cover that gap (see parse)
+  int timeout = 200;
+  private boolean timeoutSet = false;
+  int window = 7;
+  int registryPort = 1099;
+  int basePort = 6000;
+  long seed = 42;
+  boolean verbose = false;
+
+  public static LoadConfig parse(String[] args) {
+    LoadConfig config = new LoadConfig();
+
+    for (int i = 0; i < args.length; i++) {
+      String option = args[i];
+      if (option.equals("--verbose")) {
+        config.verbose = true;
+        continue;
+      }
+      if (option.equals("--check")) {
+        config.check = true;
+        continue;
+      }
+      if (option.equals("--ringcheck")) {
+        config.ringCheck = true;
+        continue;
+      }
+      if (i + 1 >= args.length)
+        throw new IllegalArgumentException("LoadConfig: missing value for " + option);
+      String value = args[++i];
+
+      switch (option) {
+        case "--sensors":
+          config.sensors = Integer.parseInt(value);
+          break;
+        case "--messages":
+          config.messages = Integer.parseInt(value);
+          break;
+        case "--fieldunits":
+          config.fieldUnits = Integer.parseInt(value);
+          break;
+        case "--shards":
+          List<Integer> shards = new ArrayList<>();
+          for (String s : value.split(",")) {
+            shards.add(Integer.parseInt(s.trim()));
+          }
+          config.shards = shards;
+          break;
+        case "--rate":
+          config.rate = Double.parseDouble(value);
+          break;
+        case "--distribution":
+          config.distribution = SimulatedSensor.Distribution.valueOf(value.toUpperCase());
+          break;
+        case "--loss":
+          config.loss = Double.parseDouble(value);
+          break;
+        case "--duplicate":
+          config.duplicate = Double.parseDouble(value);
+          break;
+        case "--reorder":
+          config.reorder = Double.parseDouble(value);
+          break;
+        case "--jitter":
+          config.jitterMicros = Integer.parseInt(value);
+          break;
+        case "--servicetime":
+          config.serviceMicros = Integer.parseInt(value);
+          break;
+        case "--warmup":
+          config.warmup = Integer.parseInt(value);
+          break;
+        case "--repeat":
+          config.repeat = Integer.parseInt(value);
+          break;
+        case "--timeout":
+          config.timeout = Integer.parseInt(value);
+          config.timeoutSet = true;
+          break;
+        case "--window":
+          config.window = Integer.parseInt(value);
+          break;
+        case "--registry":
+          config.registryPort = Integer.parseInt(value);
+          break;
+        case "--baseport":
+          config.basePort = Integer.parseInt(value);
+          break;
+        case "--seed":
+          config.seed = Long.parseLong(value);
+          break;
+        default:
+          throw new IllegalArgumentException("LoadConfig: unknown option " + option);
+      }
+    }
+
+    if (config.sensors < 1 || config.messages < 1 || config.fieldUnits < 1)
+      throw new IllegalArgumentException(
+          "LoadConfig: sensors, messages and fieldunits must be >= 1");
+    for (int shards : config.shards) {
+      if (shards < 1) throw new IllegalArgumentException("LoadConfig: shards must be >= 1");
+    }
+    if (config.repeat < 1 || config.warmup < 0 || config.serviceMicros < 0)
+      throw new IllegalArgumentException(
+          "LoadConfig: repeat must be >= 1, warmup and servicetime >= 0");
+
+    // Allow three send gaps, so one lost datagram does not split a transmission either
+    if (config.rate > 0) {
+      int minTimeout = (int) Math.ceil(3 * (1000 / config.rate + config.jitterMicros / 1000.0));
+      if (!config.timeoutSet) {
+        config.timeout = Math.max(config.timeout, minTimeout);
+      } else if (config.timeout < minTimeout) {
+        throw new IllegalArgumentException(
+            "LoadConfig: --timeout " + config.timeout + " ms would split transmissions at --rate "
+                + config.rate + "; use at least " + minTimeout + " ms");
+      }
+    }
+
+    return config;
+  }
+}
@@ -0,0 +1,67 @@
+package loadtest;
+
+/*
+ * Updated on Oct 2026
+ */
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency samples collected during one load-test run. Counters are LongAdders so the
+ * sensor, Field Unit and Central Server threads can all update them without contending.
+ */
+public class LoadStats {
+
+  // Sensor side
+  final LongAdder generated = new LongAdder();
+  final LongAdder dropped = new LongAdder();
+  final LongAdder duplicated = new LongAdder();
+  final LongAdder reordered = new LongAdder();
+  final LongAdder datagrams = new LongAdder();
+  final LongAdder sendErrors = new LongAdder();
+
+  // Field Unit side
+  final LongAdder transmissions = new LongAdder();
+  final LongAdder lostTransmissions = new LongAdder();
+  final LongAdder fieldReceived = new LongAdder();
+  final LongAdder averagesSent = new LongAdder();
+  final LongAdder rmiErrors = new LongAdder();
+  final LongAdder latencyUnmatched = new LongAdder();
+
+  // Central Server side
+  final LongAdder centralReceived = new LongAdder();
+
+  // Garbage collections during the run
+  long gcCount;
+  long gcTime;
+
+  // End-to-end latencies in nanoseconds, merged from each lane when it finishes
+  private long[] latencies = new long[0];
+  private int latencyCount = 0;
+
+  synchronized void addLatencies(long[] values, int count) {
+    if (latencyCount + count > latencies.length) {
+      latencies = Arrays.copyOf(latencies, Math.max(latencyCount + count, latencies.length * 2));
+    }
+    System.arraycopy(values, 0, latencies, latencyCount, count);
+    latencyCount += count;
+  }
+
+  /* Return the given percentiles (0..100) of the recorded latencies, in milliseconds */
+  synchronized double[] latencyPercentiles(double... percentiles) {
+    double[] result = new double[percentiles.length];
+    if (latencyCount == 0) return result;
+
+    long[] sorted = Arrays.copyOf(latencies, latencyCount);
+    Arrays.sort(sorted);
+    for (int i = 0; i < percentiles.length; i++) {
+      int rank = (int) Math.ceil(percentiles[i] / 100 * latencyCount) - 1;
+      result[i] = sorted[Math.max(0, Math.min(rank, latencyCount - 1))] / 1_000_000.0;
+    }
+    return result;
+  }
+
+  synchronized int latencySamples() {
+    return latencyCount;
+  }
+}
@@ -0,0 +1,495 @@
+package loadtest;
+
+/*
+ * Updated on Oct 2026
+ */
+import centralserver.ICentralServer;
+import common.MessageInfo;
+import field.ConsistentHashRing;
+import field.FieldUnit;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.SocketException;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * End-to-end load test: simulated sensors -> real FieldUnits (UDP on loopback) -> real
+ * CentralServer shards (RMI on loopback), all in one JVM.
+ *
+ * <p>Sensors are spread over "lanes", one per Field Unit. A Field Unit handles one transmission at
+ * a time, so each lane runs its sensors back to back while lanes run in parallel. End-to-end
+ * latency is measured per moving average, from the sensor sending the newest message in its
+ * window to the Central Server acknowledging the average over RMI.
+ *
+ * <p>With several shard counts (--shards 1,2,4) the sweep is preceded by a warm-up run and
+ * repeated in shuffled order, and a summary reports the median ingest per shard count.
+ *
+ * <p>--ringcheck skips the load test and only checks that adding a shard to the Field Unit's
+ * consistent-hash ring moves about 1/(N+1) of the streams, all of them to the new shard.
+ */
+public class LoadTest {
+
+  private static final String binding_prefix = "LoadTest";
+  private static final int ring_check_keys = 10_000;
+
+  public static void main(String[] args) throws Exception {
+    LoadConfig config;
+    try {
+      config = LoadConfig.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      System.out.println(LoadConfig.usage);
+      return;
+    }
+
+    if (config.ringCheck) {
+      System.exit(checkRing(config) ? 0 : 1);
+    }
+
+    // Create (or Locate) Registry
+    Registry registry;
+    try {
+      registry = LocateRegistry.createRegistry(config.registryPort);
+    } catch (RemoteException e) {
+      registry = LocateRegistry.getRegistry(config.registryPort);
+    }
+
+    // Unreported runs so JIT compilation and class loading do not penalise the first shard count
+    if (config.warmup > 0) {
+      System.out.println(
+          "[Load Test] Warming up with " + config.warmup + " sensors per shard count");
+      for (int shards : config.shards) {
+        run(config, registry, shards, config.warmup, new LoadStats());
+      }
+    }
+
+    // Repeat the sweep in a shuffled order each round so no shard count always runs first
+    Map<Integer, List<Double>> rates = new TreeMap<>();
+    Random order = new Random(config.seed);
+    for (int round = 0; round < config.repeat; round++) {
+      List<Integer> sweep = new ArrayList<>(config.shards);
+      Collections.shuffle(sweep, order);
+      for (int shards : sweep) {
+        LoadStats stats = new LoadStats();
+        long elapsed = run(config, registry, shards, config.sensors, stats);
+        printReport(config, shards, stats, elapsed);
+        rates
+            .computeIfAbsent(shards, k -> new ArrayList<>())
+            .add(stats.centralReceived.sum() / (Math.max(elapsed, 1) / 1e9));
+      }
+    }
+
+    boolean scales = printScaling(config, rates);
+
+    // RMI keeps non-daemon threads alive
+    System.exit(config.check && !scales ? 1 : 0);
+  }
+
+  /**
+   * For each shard count N, hash ring_check_keys stream ids onto N shards, add one more and count
+   * the streams that changed shard. Consistent hashing should move about 1/(N+1) of them, all to
+   * the new shard, and removing it again should restore every stream to its old shard.
+   */
+  private static boolean checkRing(LoadConfig config) {
+    boolean ok = true;
+    for (int shards : config.shards) {
+      ConsistentHashRing ring = new ConsistentHashRing();
+      for (int i = 0; i < shards; i++) {
+        ring.addShard(ringShard(config, i));
+      }
+      String[] before = new String[ring_check_keys];
+      for (int k = 0; k < ring_check_keys; k++) {
+        before[k] = ring.getShard("sensor-" + k);
+      }
+
+      String added = ringShard(config, shards);
+      ring.addShard(added);
+      int moved = 0;
+      int misrouted = 0;
+      for (int k = 0; k < ring_check_keys; k++) {
+        String owner = ring.getShard("sensor-" + k);
+        if (owner.equals(before[k])) continue;
+        moved++;
+        if (!owner.equals(added)) misrouted++;
+      }
+
+      ring.removeShard(added);
+      int notRestored = 0;
+      for (int k = 0; k < ring_check_keys; k++) {
+        if (!ring.getShard("sensor-" + k).equals(before[k])) notRestored++;
+      }
+
+      // Virtual nodes only even out arc sizes roughly, so allow +/-50% around 1/(N+1)
+      double expected = 1.0 / (shards + 1);
+      double fraction = (double) moved / ring_check_keys;
+      boolean pass =
+          misrouted == 0
+              && notRestored == 0
+              && fraction >= expected * 0.5
+              && fraction <= expected * 1.5;
+      ok &= pass;
+
+      System.out.printf(
+          "[Load Test] Ring %d -> %d shards: moved %d of %d streams (%.1f%%, expected ~%.1f%%),"
+              + " %d not to the new shard, %d not restored on removal [%s]%n",
+          shards, shards + 1, moved, ring_check_keys, fraction * 100, expected * 100,
+          misrouted, notRestored, pass ? "ok" : "FAIL");
+    }
+    return ok;
+  }
+
+  /* Shard id as a lane registers it with its Field Unit */
+  private static String ringShard(LoadConfig config, int i) {
+    return "localhost:" + config.registryPort + "/" + binding_prefix + "-" + i;
+  }
+
+  /* Print median Central Server ingest per shard count; true if it rises with every step */
+  private static boolean printScaling(LoadConfig config, Map<Integer, List<Double>> rates) {
+    System.out.println("===============================");
+    System.out.println(
+        "[Load Test] Shard scaling: median central ingest of " + config.repeat + " run(s)"
+            + ", fieldunits=" + config.fieldUnits
+            + serviceTime(config));
+
+    boolean scales = rates.size() > 1;
+    double base = -1;
+    double previous = -1;
+    for (Map.Entry<Integer, List<Double>> entry : rates.entrySet()) {
+      List<Double> runs = entry.getValue();
+      Collections.sort(runs);
+      double median = runs.get(runs.size() / 2);
+      if (base < 0) base = median;
+
+      // Require a 5% gain per step so run-to-run noise does not count as scaling
+      if (previous >= 0 && median < previous * 1.05) scales = false;
+      previous = median;
+
+      System.out.printf(
+          "[Load Test]   shards=%-3d %10.0f msg/s  speedup=%.2fx%n",
+          entry.getKey(), median, median / base);
+    }
+    System.out.println(
+        "[Load Test] Scaling with shard count: "
+            + (rates.size() < 2 ? "n/a (one shard count)" : scales ? "yes" : "NO")
+            + (config.serviceMicros > 0 ? " (modelled service time, not measured ingest)" : ""));
+    return scales;
+  }
+
+  /* Label for --servicetime: a non-zero value is injected per message, not measured */
+  private static String serviceTime(LoadConfig config) {
+    return config.serviceMicros > 0
+        ? " modelled service time=" + config.serviceMicros + " us"
+        : " servicetime=0 us";
+  }
+
+  /* Run 'sensors' sensors once against 'shards' Central Servers; returns the busy time in ns */
+  private static long run(
+      LoadConfig config, Registry registry, int shards, int sensors, LoadStats stats)
+      throws Exception {
+    List<MeteredCentralServer> servers = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < shards; i++) {
+      MeteredCentralServer server = new MeteredCentralServer(stats, config.serviceMicros);
+      String name = binding_prefix + "-" + shards + "-" + i;
+      registry.rebind(name, server);
+      servers.add(server);
+      names.add(name);
+    }
+
+    List<Lane> lanes = new ArrayList<>();
+    for (int f = 0; f < config.fieldUnits; f++) {
+      int assigned = sensors / config.fieldUnits + (f < sensors % config.fieldUnits ? 1 : 0);
+      lanes.add(new Lane(f, config.basePort + f, assigned, config, stats));
+    }
+    for (Lane lane : lanes) {
+      lane.connect(config.registryPort, names);
+    }
+
+    // FieldUnit and CentralServer print every message; silence them so printing is not measured
+    PrintStream console = System.out;
+    if (!config.verbose) System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+    long[] gcBefore = gcTotals();
+    long start = System.nanoTime();
+    try {
+      for (Lane lane : lanes) {
+        lane.start(start);
+      }
+      for (Lane lane : lanes) {
+        lane.join();
+      }
+    } finally {
+      System.setOut(console);
+    }
+    long[] gcAfter = gcTotals();
+    stats.gcCount = gcAfter[0] - gcBefore[0];
+    stats.gcTime = gcAfter[1] - gcBefore[1];
+
+    long end = start;
+    for (Lane lane : lanes) {
+      end = Math.max(end, lane.lastActivity);
+    }
+
+    for (int i = 0; i < shards; i++) {
+      try {
+        registry.unbind(names.get(i));
+      } catch (NotBoundException e) {
+        // Already gone
+      }
+      UnicastRemoteObject.unexportObject(servers.get(i), true);
+    }
+
+    return end - start;
+  }
+
+  private static void printReport(LoadConfig config, int shards, LoadStats stats, long elapsed) {
+    double seconds = Math.max(elapsed, 1) / 1e9;
+    long generated = stats.generated.sum();
+    long dropped = stats.dropped.sum();
+    long duplicated = stats.duplicated.sum();
+    long fieldReceived = stats.fieldReceived.sum();
+    long averagesSent = stats.averagesSent.sum();
+    long centralReceived = stats.centralReceived.sum();
+    long expectedAtField = generated - dropped + duplicated - stats.sendErrors.sum();
+    // One transmission per sensor, received or lost; more means a timeout split one
+    long transmissions = stats.transmissions.sum() + stats.lostTransmissions.sum();
+    double[] p = stats.latencyPercentiles(50, 90, 99, 99.9, 100);
+
+    long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+    System.out.println("===============================");
+    System.out.println(
+        "[Load Test] shards=" + shards
+            + " fieldunits=" + config.fieldUnits
+            + " sensors=" + config.sensors
+            + " messages/sensor=" + config.messages
+            + " rate=" + (config.rate > 0 ? config.rate + " msg/s" : "max")
+            + " timeout=" + config.timeout + " ms"
+            + " distribution=" + config.distribution.name().toLowerCase()
+            + serviceTime(config));
+    System.out.println(
+        "[Load Test] Faults            : loss=" + config.loss
+            + " duplicate=" + config.duplicate
+            + " reorder=" + config.reorder
+            + " jitter=" + config.jitterMicros + " us");
+    System.out.printf("[Load Test] Elapsed           : %.1f ms%n", elapsed / 1e6);
+    System.out.printf(
+        "[Load Test] Throughput        : sensors %.0f msg/s, field units %.0f msg/s,"
+            + " central %.0f msg/s%n",
+        stats.datagrams.sum() / seconds, fieldReceived / seconds, centralReceived / seconds);
+    System.out.printf(
+        "[Load Test] Latency (ms)      : p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f"
+            + " (%d samples, %d unmatched)%n",
+        p[0], p[1], p[2], p[3], p[4], stats.latencySamples(), stats.latencyUnmatched.sum());
+    System.out.println(
+        "[Load Test] Sensors           : generated=" + generated
+            + " dropped=" + dropped
+            + " duplicated=" + duplicated
+            + " reordered=" + stats.reordered.sum()
+            + " send errors=" + stats.sendErrors.sum());
+    System.out.println(
+        "[Load Test] Field Units       : received=" + fieldReceived
+            + " expected=" + expectedAtField
+            + " transmissions=" + stats.transmissions.sum()
+            + " lost transmissions=" + stats.lostTransmissions.sum()
+            + (fieldReceived == expectedAtField && transmissions == config.sensors
+                ? " [consistent]"
+                : " [MISMATCH]"));
+    System.out.println(
+        "[Load Test] Central Servers   : received=" + centralReceived
+            + " averages sent=" + averagesSent
+            + " rmi errors=" + stats.rmiErrors.sum()
+            + (centralReceived == averagesSent ? " [consistent]" : " [MISMATCH]"));
+    System.out.println(
+        "[Load Test] GC                : collections=" + stats.gcCount
+            + " time=" + stats.gcTime + " ms"
+            + " heap used=" + heapUsed / (1024 * 1024) + " MB");
+  }
+
+  /* Collection count and time (ms) summed over all collectors */
+  private static long[] gcTotals() {
+    long[] totals = new long[2];
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      totals[0] += Math.max(0, gc.getCollectionCount());
+      totals[1] += Math.max(0, gc.getCollectionTime());
+    }
+    return totals;
+  }
+
+  /**
+   * One FieldUnit and the sensors assigned to it. A driver thread runs the sensors one at a time;
+   * a receiver thread runs the FieldUnit receive / average / send cycle, as FieldUnit.main does.
+   */
+  private static class Lane {
+    private final int id;
+    private final int port;
+    private final int sensors;
+    private final LoadConfig config;
+    private final LoadStats stats;
+    private final FieldUnit fieldUnit;
+
+    // Released by the receiver exactly once per transmission, when it is done with it. 'started'
+    // and 'finished' count transmissions the driver began and finished sending; the receiver
+    // never releases more permits than 'started', so the two threads cannot drift apart.
+    private final Semaphore ready = new Semaphore(0);
+    private volatile int started = 0;
+    private volatile int finished = 0;
+    private volatile boolean driverDone = false;
+    // Sensors by id, so each average is timed against the sensor that sent its source message
+    private final Map<String, SimulatedSensor> sensorsById = new ConcurrentHashMap<>();
+    private volatile long lastActivity;
+
+    // Only touched by the receiver thread until it finishes
+    private long[] latencies = new long[1024];
+    private int latencyCount = 0;
+
+    private Thread driver;
+    private Thread receiver;
+
+    Lane(int id, int port, int sensors, LoadConfig config, LoadStats stats) {
+      this.id = id;
+      this.port = port;
+      this.sensors = sensors;
+      this.config = config;
+      this.stats = stats;
+      this.fieldUnit = new FieldUnit();
+    }
+
+    /* Connect the FieldUnit to every shard through a proxy that timestamps each RMI call */
+    void connect(int registryPort, List<String> names) throws RemoteException, NotBoundException {
+      Registry registry = LocateRegistry.getRegistry("localhost", registryPort);
+      for (String name : names) {
+        ICentralServer stub = (ICentralServer) registry.lookup(name);
+        fieldUnit.addShard("localhost:" + registryPort + "/" + name, new TimedCentralServer(stub));
+      }
+    }
+
+    void start(long startTime) throws SocketException {
+      // Bind before the driver starts so the first datagrams are not lost
+      fieldUnit.openSocket(port);
+      lastActivity = startTime;
+      driver = new Thread(this::drive, "loadtest-sensors-" + id);
+      receiver = new Thread(this::receive, "loadtest-fieldunit-" + id);
+      receiver.start();
+      driver.start();
+    }
+
+    void join() throws InterruptedException {
+      driver.join();
+      receiver.join();
+    }
+
+    private void drive() {
+      try {
+        for (int s = 0; s < sensors; s++) {
+          Random random = new Random(config.seed + (long) s * config.fieldUnits + id);
+          String sensorId = "sensor-" + id + "-" + s;
+          SimulatedSensor sensor =
+              new SimulatedSensor("localhost", port, sensorId, config, stats, random);
+          sensorsById.put(sensorId, sensor);
+          started = s + 1;
+          sensor.run(config.messages);
+          finished = s + 1;
+
+          // Wait until the Field Unit has handled (or given up on) this transmission
+          ready.acquire();
+
+          // Only the previous transmission can still have datagrams queued at the Field Unit
+          sensorsById.remove("sensor-" + id + "-" + (s - 1));
+        }
+      } catch (InterruptedException e) {
+        System.err.println("[Load Test] Sensor driver interrupted: " + e.getMessage());
+      } finally {
+        driverDone = true;
+      }
+    }
+
+    private void receive() {
+      int acked = 0;
+      try {
+        while (true) {
+          boolean doneBefore = driverDone;
+          fieldUnit.receiveMeasures(port, config.timeout);
+
+          int received = fieldUnit.getReceivedCount();
+          if (received > 0) {
+            stats.transmissions.increment();
+            stats.fieldReceived.add(received);
+            fieldUnit.sMovingAverage(config.window);
+            fieldUnit.printStats();
+            fieldUnit.sendAverages();
+            lastActivity = System.nanoTime();
+
+            if (acked < started) {
+              acked++;
+              ready.release();
+            }
+          } else if (acked < finished) {
+            // The sensor finished sending and nothing arrived for a whole timeout: all lost
+            stats.lostTransmissions.increment();
+            acked++;
+            ready.release();
+          } else if (doneBefore) {
+            break;
+          }
+        }
+      } catch (SocketException e) {
+        System.err.println("[Load Test] Field Unit " + id + " socket error: " + e.getMessage());
+      } finally {
+        fieldUnit.closeSocket();
+        stats.addLatencies(latencies, latencyCount);
+      }
+    }
+
+    /* Latency of moving average 'averageNum', timed from the sensor message that completed it */
+    private void recordLatency(int averageNum) {
+      MessageInfo source = fieldUnit.getSourceMessage(averageNum);
+      SimulatedSensor sensor = source == null ? null : sensorsById.get(source.getStreamId());
+      long sent = sensor == null ? 0 : sensor.getSendTime(source.getMessageNum());
+      if (sent == 0) {
+        stats.latencyUnmatched.increment();
+        return;
+      }
+
+      if (latencyCount == latencies.length) latencies = Arrays.copyOf(latencies, latencyCount * 2);
+      latencies[latencyCount++] = System.nanoTime() - sent;
+    }
+
+    /* Local (unexported) ICentralServer wrapping the RMI stub, called on the receiver thread */
+    private class TimedCentralServer implements ICentralServer {
+      private final ICentralServer stub;
+
+      TimedCentralServer(ICentralServer stub) {
+        this.stub = stub;
+      }
+
+      @Override
+      public void receiveMsg(MessageInfo m) throws RemoteException {
+        try {
+          stub.receiveMsg(m);
+        } catch (RemoteException e) {
+          stats.rmiErrors.increment();
+          throw e;
+        }
+        stats.averagesSent.increment();
+        recordLatency(m.getMessageNum());
+      }
+    }
+  }
+}
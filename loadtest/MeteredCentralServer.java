@@ -0,0 +1,41 @@
+package loadtest;
+
+/*
+ * Updated on Oct 2026
+ */
+import centralserver.CentralServer;
+import common.MessageInfo;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The real CentralServer with a counter in front of receiveMsg() so the harness can check how
+ * many averages actually reached each shard over RMI. It can also hold the shard's lock for a
+ * configured service time per message, standing in for a per-shard downstream store. That time
+ * is a model: runs using it show how sharding would hide a slow downstream, not how fast
+ * CentralServer itself ingests.
+ */
+public class MeteredCentralServer extends CentralServer {
+
+  private final LoadStats stats;
+  private final long serviceNanos;
+
+  public MeteredCentralServer(LoadStats stats, int serviceMicros) throws RemoteException {
+    super();
+    this.stats = stats;
+    this.serviceNanos = serviceMicros * 1000L;
+  }
+
+  @Override
+  public void receiveMsg(MessageInfo msg) {
+    stats.centralReceived.increment();
+    if (serviceNanos > 0) {
+      // Same monitor as CentralServer's bookkeeping: one message at a time per shard
+      synchronized (this) {
+        LockSupport.parkNanos(serviceNanos);
+      }
+    }
+    super.receiveMsg(msg);
+  }
+}
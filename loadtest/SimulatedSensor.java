@@ -0,0 +1,170 @@
+package loadtest;
+
+/*
+ * Updated on Oct 2026
+ */
+import common.MessageInfo;
+import sensor.ISensor;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process sensor used by the load-test harness. Behaves like sensor.Sensor (one UDP socket per
+ * transmission, "total;num;value;sensorId" datagrams whose id has no length bound) but paces
+ * sends at a configurable rate, draws values from a configurable distribution and can inject
+ * loss, duplication, reordering and jitter. It prints nothing so thousands of them can share one
+ * JVM.
+ */
+public class SimulatedSensor implements ISensor {
+
+  public enum Distribution {
+    UNIFORM,
+    GAUSSIAN,
+    CONSTANT
+  }
+
+  private static final int max_measure = 50;
+  private static final int min_measure = 10;
+  private static final int buffsize = 2048;
+
+  private final String destAddress;
+  private final int destPort;
+  private final String sensorId;
+  private final LoadConfig config;
+  private final LoadStats stats;
+  private final Random random;
+
+  private DatagramSocket datagramSocket;
+  private final byte[] buffer;
+
+  // sendTimes[i] = System.nanoTime() of the first datagram carrying message i (0 if dropped)
+  private volatile long[] sendTimes;
+
+  public SimulatedSensor(
+      String address,
+      int port,
+      String sensorId,
+      LoadConfig config,
+      LoadStats stats,
+      Random random) {
+    this.destAddress = address;
+    this.destPort = port;
+    this.sensorId = sensorId;
+    this.config = config;
+    this.stats = stats;
+    this.random = random;
+    this.buffer = new byte[buffsize];
+    this.sendTimes = new long[0];
+  }
+
+  @Override
+  public void run(int N) throws InterruptedException {
+    sendTimes = new long[N + 1];
+    try {
+      datagramSocket = new DatagramSocket();
+    } catch (IOException e) {
+      System.err.println("[Simulated Sensor] Could not create socket: " + e.getMessage());
+      // Count the messages as generated too, so expected-at-field (generated - errors) stays 0
+      stats.generated.add(N);
+      stats.sendErrors.add(N);
+      return;
+    }
+
+    long interval = config.rate > 0 ? (long) (1_000_000_000L / config.rate) : 0;
+    long start = System.nanoTime();
+    MessageInfo held = null;
+
+    try {
+      for (int i = 1; i <= N; i++) {
+        if (Thread.interrupted()) throw new InterruptedException("Simulated sensor interrupted");
+
+        // Pace to the configured rate, then add random jitter on top
+        if (interval > 0) {
+          long wait = start + (i - 1) * interval - System.nanoTime();
+          if (wait > 0) LockSupport.parkNanos(wait);
+        }
+        if (config.jitterMicros > 0) {
+          LockSupport.parkNanos(random.nextInt(config.jitterMicros) * 1000L);
+        }
+
+        MessageInfo msg = new MessageInfo(N, i, getMeasurement(), sensorId);
+        stats.generated.increment();
+
+        if (random.nextDouble() < config.loss) {
+          stats.dropped.increment();
+          continue;
+        }
+
+        // Reorder by holding this message back and sending it after the next one
+        if (held == null && i < N && random.nextDouble() < config.reorder) {
+          held = msg;
+          stats.reordered.increment();
+          continue;
+        }
+
+        transmit(msg);
+        if (held != null) {
+          transmit(held);
+          held = null;
+        }
+      }
+
+      if (held != null) transmit(held);
+    } finally {
+      datagramSocket.close();
+    }
+  }
+
+  private void transmit(MessageInfo msg) {
+    if (sendTimes[msg.getMessageNum()] == 0) sendTimes[msg.getMessageNum()] = System.nanoTime();
+    sendMessage(destAddress, destPort, msg);
+
+    if (random.nextDouble() < config.duplicate) {
+      sendMessage(destAddress, destPort, msg);
+      stats.duplicated.increment();
+    }
+  }
+
+  @Override
+  public void sendMessage(String address, int port, MessageInfo msg) {
+    try {
+      InetAddress dest = InetAddress.getByName(address);
+
+      byte[] data = msg.toString().getBytes();
+      if (data.length > buffer.length) {
+        throw new IOException(
+            "Message size " + data.length + " exceeds buffer size " + buffer.length);
+      }
+      System.arraycopy(data, 0, buffer, 0, data.length);
+      datagramSocket.send(new DatagramPacket(buffer, data.length, dest, port));
+      stats.datagrams.increment();
+    } catch (IOException e) {
+      stats.sendErrors.increment();
+      System.err.println("[Simulated Sensor] Error sending message: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public float getMeasurement() {
+    float mid = (max_measure + min_measure) / 2f;
+    switch (config.distribution) {
+      case GAUSSIAN:
+        // ~99.7% of values fall within [min_measure, max_measure]
+        return (float) (random.nextGaussian() * (max_measure - min_measure) / 6 + mid);
+      case CONSTANT:
+        return mid;
+      default:
+        return random.nextFloat() * (max_measure - min_measure) + min_measure;
+    }
+  }
+
+  /* Send time of message 'msgNum' in System.nanoTime() units, or 0 if it was never sent */
+  public long getSendTime(int msgNum) {
+    return msgNum > 0 && msgNum < sendTimes.length ? sendTimes[msgNum] : 0;
+  }
+}
@@ -31,19 +31,28 @@ public class Sensor implements ISensor {
   private int destPort;
   private int totalMessages;
 
+  // Stable id sent with every message so the Field Unit can route this sensor consistently
+  private String sensorId;
+
   /* Note: Could you discuss in one line of comment what you think can be
    * an appropriate size for buffsize? (Which is used to init DatagramPacket?)
    * buffsize = 2048 bytes is appropriate: MessageInfo serialised as a string
-   * (totalMessages;msgNum;value\n) is well under 100 bytes, so 2048 gives
-   * ample headroom for any reasonable payload without wasting memory.
+   * (totalMessages;msgNum;value[;sensorId]\n) is under 100 bytes plus the
+   * optional sensor id, whose length is not bounded. 2048 leaves room for any
+   * reasonable id; sendMessage() refuses a longer message rather than truncate it.
    */
   private static final int buffsize = 2048;
 
   public Sensor(String address, int port, int totMsg) {
+    this(address, port, totMsg, null);
+  }
+
+  public Sensor(String address, int port, int totMsg, String sensorId) {
     // Build Sensor Object
     this.destAddress = address;
     this.destPort = port;
     this.totalMessages = totMsg;
+    this.sensorId = sensorId;
     this.buffer = new byte[buffsize];
     try {
       this.datagramSocket = new DatagramSocket();
@@ -62,7 +71,7 @@ public class Sensor implements ISensor {
     // Send N measurements to the destination address and port
     for (int i = 1; i <= N; i++) {
       float measurement = this.getMeasurement();
-      MessageInfo msg = new MessageInfo(N, i, measurement);
+      MessageInfo msg = new MessageInfo(N, i, measurement, sensorId);
 
       // Call sendMessage() to send the msg to destination
       sendMessage(destAddress, destPort, msg);
@@ -95,7 +104,8 @@ public class Sensor implements ISensor {
 
   public static void main(String[] args) {
     if (args.length < 3) {
-      System.out.println("Usage: ./sensor.sh field_unit_address port number_of_measures");
+      System.out.println(
+          "Usage: ./sensor.sh field_unit_address port number_of_measures [sensor_id]");
       return;
     }
 
@@ -103,9 +113,14 @@ public class Sensor implements ISensor {
     String address = args[0];
     int port = Integer.parseInt(args[1]);
     int totMsg = Integer.parseInt(args[2]);
+    String sensorId = args.length > 3 ? args[3] : null;
+    if (sensorId != null && !MessageInfo.isValidStreamId(sensorId)) {
+      System.out.println("[Sensor] Invalid sensor id (no ';' or surrounding spaces): " + sensorId);
+      return;
+    }
 
     // Call constructor of sensor to build Sensor object
-    Sensor sensor = new Sensor(address, port, totMsg);
+    Sensor sensor = new Sensor(address, port, totMsg, sensorId);
 
     // Use Run to send the messages and catch any InterruptedException
     try {